@@ -0,0 +1,10 @@
+package br.com.julianozanella.util;
+
+/**
+ * The aggregate functions of {@link Database#aggregate}.
+ *
+ * @author Juliano Zanella
+ */
+public enum Aggregate {
+    SUM, MIN, MAX, AVG
+}
@@ -1,21 +1,46 @@
 package br.com.julianozanella.util;
 
+import br.com.julianozanella.util.association.ManyToOne;
+import br.com.julianozanella.util.association.OneToMany;
 import br.com.julianozanella.util.exception.ConnectionNotFoundException;
 import br.com.julianozanella.util.exception.InvalidTypeArgsException;
+import br.com.julianozanella.util.exception.LimitExceededException;
+import br.com.julianozanella.util.limit.AimdLimiter;
+import br.com.julianozanella.util.shard.HashShardKey;
+import br.com.julianozanella.util.shard.ShardKey;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Juliano Zanella
@@ -25,7 +50,21 @@ import java.util.List;
 public final class Database {
 
     private static final String DRIVER = "com.mysql.jdbc.Driver";
+    private static final int ALL_SHARDS = -1;
+    private static final int FETCH_BATCH_SIZE = 500;
     private static String url, user, password;
+    private static final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private static ShardKey shardKey = new HashShardKey();
+    private static final Map<String, TableShardKey> tableShardKeys = new ConcurrentHashMap<>();
+    private static final Map<String, String> primaryKeys = new ConcurrentHashMap<>();
+    private static AimdLimiter limiter;
+    private static int queryTimeout;
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+    private static final ExecutorService scatterExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "database-scatter");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Create the database connection and maintain, use only once. ****Be sure
@@ -42,15 +81,363 @@ public final class Database {
         Database.url = url;
         Database.user = user;
         Database.password = password;
+        primaryKeys.clear();
     }
 
 
     /**
-     * @return The connection with database.
+     * Register one more database as a shard, used instead of the database of {@link #createConnection}.
+     * When at least two shards are registered, insert, update and delete by object or by
+     * primary key go to the shard chosen by the shard key, and the other operations are sent
+     * to all the shards.
+     *
+     * @param url      The shard url. EX:
+     *                 "jdbc:mysql://localhost:3306/databaseName"
+     * @param user     The shard user. Ex: "root"
+     * @param password The shard password
+     */
+    public static void addShard(String url, String user, String password) {
+        shards.add(new Shard(url, user, password));
+        primaryKeys.clear();
+    }
+
+    /**
+     * Remove all the registered shards and shard keys, going back to the database of {@link #createConnection}.
+     */
+    public static void clearShards() {
+        shards.clear();
+        tableShardKeys.clear();
+        primaryKeys.clear();
+        shardKey = new HashShardKey();
+    }
+
+    /**
+     * Choose how the rows of the tables without their own shard key are distributed
+     * over the shards, by the primary key. The default is {@link HashShardKey}.
+     *
+     * @param shardKey The shard key function. Ex: <b>new RangeShardKey(1000, 2000)</b>
+     */
+    public static void setShardKey(ShardKey shardKey) {
+        Database.shardKey = shardKey;
+    }
+
+    /**
+     * Choose how the rows of the table are distributed over the shards, by the given field.
+     * <b>Ex: Customer by "id" and Orders by "customerId" keep the orders with their customer.</b>
+     *
+     * @param clazz    The class whose name is the name of the table.
+     * @param shardKey The shard key function. Ex: <b>new HashShardKey()</b>
+     * @param field    The field used as shard key, null for the primary key. Ex: <b>"customerId"</b>
+     */
+    public static void setShardKey(Class clazz, ShardKey shardKey, String field) {
+        tableShardKeys.put(clazz.getSimpleName().toLowerCase(), new TableShardKey(shardKey, field));
+    }
+
+    /**
+     * Bound the concurrent operations. When the limit is reached, the operations fail
+     * at once with {@link LimitExceededException} instead of waiting for the database.
+     *
+     * @param limiter The limiter. Ex: <b>new AimdLimiter(20, 1, 100, 200)</b>, null for no limit.
+     */
+    public static void setLimiter(AimdLimiter limiter) {
+        Database.limiter = limiter;
+    }
+
+    /**
+     * Apply a timeout to every statement and to the connect of the MySQL driver.
+     *
+     * @param seconds The timeout in seconds, 0 for no timeout.
+     */
+    public static void setQueryTimeout(int seconds) {
+        Database.queryTimeout = seconds;
+    }
+
+    /**
+     * Set a deadline for the next operations of the current thread. Each connect and statement
+     * gets the remaining time as timeout, and the operations fail with {@link SQLTimeoutException}
+     * once the deadline has passed. <b>Call {@link #clearDeadline()} when the work is done.</b>
+     *
+     * @param millis The time available from now, in milliseconds.
+     */
+    public static void setDeadline(long millis) {
+        deadline.set(System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Remove the deadline of the current thread.
+     */
+    public static void clearDeadline() {
+        deadline.remove();
+    }
+
+    /**
+     * @return The milliseconds left before the deadline of the current thread, 0 for no deadline.
+     * @throws SQLTimeoutException if the deadline has passed.
+     */
+    private static long getRemainingMillis() throws SQLTimeoutException {
+        Long end = deadline.get();
+        if (end == null) {
+            return 0;
+        }
+        long remaining = end - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new SQLTimeoutException("Deadline exceeded");
+        }
+        return remaining;
+    }
+
+    /**
+     * @return The statement timeout in seconds from the query timeout and the time left, 0 for none.
+     */
+    private static int getStatementTimeout(long remaining) {
+        if (remaining == 0) {
+            return queryTimeout;
+        }
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+        return (queryTimeout > 0) ? Math.min(queryTimeout, seconds) : seconds;
+    }
+
+    /**
+     * @return The properties of the connection, with the connect timeout in milliseconds bounded
+     * by the time left or by the query timeout.
+     */
+    private static Properties getConnectProperties(String user, String password, long remaining) {
+        Properties properties = new Properties();
+        if (user != null) {
+            properties.setProperty("user", user);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        long connectTimeout = (remaining > 0) ? remaining : queryTimeout * 1000L;
+        if (connectTimeout > 0) {
+            properties.setProperty("connectTimeout", String.valueOf(Math.min(Integer.MAX_VALUE, connectTimeout)));
+        }
+        return properties;
+    }
+
+    /**
+     * @return The number of databases in use, 1 when there are no shards.
+     */
+    public static int getShardCount() {
+        return Math.max(shards.size(), 1);
+    }
+
+    /**
+     * With a limiter, the connection holds a place in it until closed. <b>Always close it.</b>
+     *
+     * @return The connection with database, or with the first shard.
      */
     public static Connection getConnection() throws ClassNotFoundException, SQLException {
+        return getConnection(0);
+    }
+
+    /**
+     * With a limiter, the connection holds a place in it until closed. <b>Always close it.</b>
+     *
+     * @param shard The shard index.
+     * @return The connection with the shard.
+     */
+    public static Connection getConnection(int shard) throws ClassNotFoundException, SQLException {
+        return getConnection(shard, true);
+    }
+
+    /**
+     * @param shard   The shard index.
+     * @param limited false for the lookups made while the operation already holds its place in the limiter.
+     * @return The connection with the shard.
+     */
+    private static Connection getConnection(int shard, boolean limited) throws ClassNotFoundException, SQLException {
         Class.forName(DRIVER);
-        return DriverManager.getConnection(url, user, password);
+        long remaining = getRemainingMillis();
+        int timeout = getStatementTimeout(remaining);
+        AimdLimiter limiter = limited ? Database.limiter : null;
+        if (limiter != null && !limiter.tryAcquire()) {
+            throw new LimitExceededException(limiter.getLimit());
+        }
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            if (shards.isEmpty()) {
+                connection = DriverManager.getConnection(url, getConnectProperties(user, password, remaining));
+            } else {
+                Shard s = shards.get(shard);
+                connection = DriverManager.getConnection(s.url, getConnectProperties(s.user, s.password, remaining));
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - start);
+            }
+            throw e;
+        }
+        if (limiter == null && timeout == 0) {
+            return connection;
+        }
+        return limit(connection, limiter, timeout, start);
+    }
+
+    /**
+     * @return The connection that applies the timeout to its statements and releases the limiter when closed.
+     */
+    private static Connection limit(Connection connection, AimdLimiter limiter, int timeout, long start) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Database.class.getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> {
+            boolean closing = method.getName().equals("close") && closed.compareAndSet(false, true);
+            try {
+                Object result = method.invoke(connection, args);
+                if (timeout > 0 && result instanceof Statement) {
+                    ((Statement) result).setQueryTimeout(timeout);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (closing && limiter != null) {
+                    limiter.release(System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    private static String getShardField(String tableName) throws SQLException, ConnectionNotFoundException {
+        TableShardKey tableShardKey = tableShardKeys.get(tableName.toLowerCase());
+        return (tableShardKey == null || tableShardKey.field == null) ? getPK(tableName) : tableShardKey.field;
+    }
+
+    private static boolean isShardedByPK(String tableName) throws SQLException, ConnectionNotFoundException {
+        TableShardKey tableShardKey = tableShardKeys.get(tableName.toLowerCase());
+        return tableShardKey == null || tableShardKey.field == null || tableShardKey.field.equalsIgnoreCase(getPK(tableName));
+    }
+
+    private static int getShardOfKey(String tableName, Object key) {
+        TableShardKey tableShardKey = tableShardKeys.get(tableName.toLowerCase());
+        return ((tableShardKey == null) ? shardKey : tableShardKey.shardKey).getShard(key, shards.size());
+    }
+
+    /**
+     * @return The shard that owns the key of the row.
+     * @throws IllegalArgumentException if the row has no key, which would send it to the wrong shard.
+     */
+    private static int getShard(String tableName, String field, Object key) throws SQLException, ConnectionNotFoundException {
+        boolean noCode = key instanceof Number && ((Number) key).longValue() == 0 && isShardedByPK(tableName);
+        if (key == null || noCode) {
+            throw new IllegalArgumentException("The shard key " + field + " of " + tableName + " has no value");
+        }
+        return getShardOfKey(tableName, key);
+    }
+
+    /**
+     * @return The shard that owns the object.
+     */
+    private static int getShard(Object object, Class cls) throws SQLException, ConnectionNotFoundException, IllegalAccessException {
+        if (!isSharded()) {
+            return 0;
+        }
+        String table = cls.getSimpleName();
+        String name = getShardField(table);
+        Field field = findField(cls, name);
+        return getShard(table, name, (field == null) ? null : field.get(object));
+    }
+
+    /**
+     * @return The shard that owns the primary key code, or ALL_SHARDS when the table is sharded by another field.
+     */
+    private static int getShard(String tableName, int codeId) throws SQLException, ConnectionNotFoundException {
+        if (!isSharded()) {
+            return 0;
+        }
+        if (isShardedByPK(tableName)) {
+            return getShardOfKey(tableName, codeId);
+        }
+        return ALL_SHARDS;
+    }
+
+    /**
+     * @return The shard that owns the primary key code, for the writes by id.
+     * @throws IllegalStateException if the table is sharded by another field, so the id alone does not tell the shard.
+     */
+    private static int getShardById(String tableName, int codeId) throws SQLException, ConnectionNotFoundException {
+        int shard = getShard(tableName, codeId);
+        if (shard == ALL_SHARDS) {
+            throw new IllegalStateException("Update and delete by id need " + tableName + " sharded by its primary key, use the object or a where clause");
+        }
+        return shard;
+    }
+
+    private static int getShard(String tableName, HashMap<String, Object> fieldsAndValues) throws SQLException, ConnectionNotFoundException {
+        if (!isSharded()) {
+            return 0;
+        }
+        String field = getShardField(tableName);
+        for (Map.Entry<String, Object> entry : fieldsAndValues.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(field)) {
+                return getShard(tableName, field, entry.getValue());
+            }
+        }
+        return getShard(tableName, field, null);
+    }
+
+    /**
+     * @return The given shard, or every shard when ALL_SHARDS.
+     */
+    private static int[] getShards(int shard) {
+        if (shard != ALL_SHARDS) {
+            return new int[]{shard};
+        }
+        int[] all = new int[getShardCount()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    /**
+     * Run the task on every shard in parallel and gather the results, in shard order.
+     */
+    private static <T> List<T> scatter(ShardTask<T> task) {
+        List<T> results = new ArrayList<>();
+        try {
+            if (!isSharded()) {
+                results.add(task.run(0));
+                return results;
+            }
+            Long end = deadline.get();
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                final int shard = i;
+                futures.add(scatterExecutor.submit(() -> {
+                    deadline.set(end);
+                    try {
+                        return task.run(shard);
+                    } finally {
+                        deadline.remove();
+                    }
+                }));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            Database.<RuntimeException>rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Database.<RuntimeException>rethrow(e);
+        } catch (Exception e) {
+            Database.<RuntimeException>rethrow(e);
+        }
+        return results;
+    }
+
+    /**
+     * Rethrow the checked exceptions of the shard tasks, already declared by the public methods.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void rethrow(Throwable throwable) throws E {
+        throw (E) throwable;
     }
 
 
@@ -66,12 +453,7 @@ public final class Database {
      * @throws ConnectionNotFoundException
      */
     public static void insert(String tableName, HashMap<String, Object> fieldsAndValues) throws InvalidTypeArgsException, SQLException, ConnectionNotFoundException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
-        }
+        int shard = getShard(tableName, fieldsAndValues);
         StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
         StringBuilder valuesString = new StringBuilder(" VALUES (");
         for (String field : fieldsAndValues.keySet()) {
@@ -84,24 +466,16 @@ public final class Database {
         sql.append(") ");
         valuesString.append(") ");
         sql.append(valuesString);
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
             int index = 1;
             for (Object object : fieldsAndValues.values()) {
-                if (object instanceof Integer) {
-                    stmt.setInt(index, (int) object);
-                } else if (object instanceof String) {
-                    stmt.setString(index, (String) object);
-                } else if (object instanceof Double) {
-                    stmt.setDouble(index, (double) object);
-                } else if (object instanceof Character) {
-                    stmt.setString(index, "" + ((Character) object));
-                } else if (object instanceof Date) {
-                    stmt.setDate(index, (Date) object);
-                } else if (object instanceof LocalDate) {
-                    stmt.setDate(index, DateUtil.getSQLDate((LocalDate) object));
-                } else {
-                    throw new InvalidTypeArgsException(object.getClass().getSimpleName());
-                }
+                setParameter(stmt, index, object);
                 index++;
             }
             stmt.execute();
@@ -130,26 +504,26 @@ public final class Database {
      *
      * @param object        The fill object to insert into database.
      * @param autoIncrement if false, insert also the primary key code.
+     *                      <b>With shards, auto increment is not supported: each shard would issue
+     *                      the same ids, so insert ids that are unique across the shards.</b>
      * @throws IllegalAccessException
      * @throws SQLException
      * @throws ClassNotFoundException
      * @throws ConnectionNotFoundException
      */
     public static void insert(Object object, boolean autoIncrement) throws SQLException, ClassNotFoundException, IllegalArgumentException, IllegalAccessException, ConnectionNotFoundException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
+        Class clazz = Class.forName(object.getClass().getName());
+        if (autoIncrement && isSharded()) {
+            throw new IllegalArgumentException("Auto increment inserts are not supported with shards, insert ids that are unique across the shards");
         }
+        int shard = getShard(object, clazz);
         StringBuilder fields = new StringBuilder();
         StringBuilder values = new StringBuilder();
-        Class clazz = Class.forName(object.getClass().getName());
         String pk = getPK(clazz);
         Field declaredFields[] = clazz.getDeclaredFields();
         for (Field fld : declaredFields) {
             fld.setAccessible(true);
-            if (autoIncrement && fld.getName().equalsIgnoreCase(pk)) {
+            if ((autoIncrement && fld.getName().equalsIgnoreCase(pk)) || isAssociation(fld)) {
                 continue;
             }
             if (fld.get(object) != null) {
@@ -168,6 +542,12 @@ public final class Database {
                 + ") VALUES ("
                 + values
                 + ")";
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.execute();
         } finally {
@@ -229,11 +609,113 @@ public final class Database {
     }
 
     /**
-     * Selects all fields in the table.
+     * Selects the first fields in the table that meet the condition, on all the shards in parallel.
+     * Each shard sorts its rows by the order and returns at most limit of them, and the results
+     * are merged by the same order, so the order must name fields of the class.
+     *
+     * @param clazz       The class of objects that will be populated with the result of the query.
+     * @param whereClause The condition, empty for all. <b>Ex: "name LIKE J%"</b>
+     * @param orderBy     The fields to sort by, each one ASC or DESC. <b>Ex: "age DESC, name"</b>
+     * @param limit       The maximum number of results, 0 for all.
+     * @return The list of these objects. <b>Convert each one in turn.</b>
+     * @throws SQLException
+     * @throws InstantiationException
+     * @throws IllegalAccessException
+     * @throws NoSuchMethodException
+     * @throws SecurityException
+     * @throws InvocationTargetException
+     * @throws ConnectionNotFoundException
+     */
+    public static List<Object> select(Class clazz, String whereClause, String orderBy, int limit) throws SQLException, InstantiationException, IllegalAccessException, NoSuchMethodException, SecurityException, InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        Comparator<Object> order = getOrder(clazz, orderBy);
+        List<Object> list = select(clazz, 0, whereClause, new Object[0], orderBy, Math.max(limit, 0));
+        list.sort(order);
+        if (limit > 0 && list.size() > limit) {
+            list = new ArrayList<>(list.subList(0, limit));
+        }
+        return list;
+    }
+
+    /**
+     * @return The order of the objects by the fields of the ORDER BY, nulls first.
+     * @throws IllegalArgumentException if the order is empty or is not made of fields of the class.
+     */
+    private static Comparator<Object> getOrder(Class c, String orderBy) {
+        if (orderBy == null || orderBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("The first rows of the shards need an order by");
+        }
+        Comparator<Object> order = null;
+        for (String column : orderBy.split(",")) {
+            String[] parts = column.trim().split("\\s+");
+            boolean descending = parts.length == 2 && parts[1].equalsIgnoreCase("DESC");
+            if (parts.length > 2 || (parts.length == 2 && !descending && !parts[1].equalsIgnoreCase("ASC"))) {
+                throw new IllegalArgumentException("Cannot merge the shards by " + column.trim() + ", use a field with ASC or DESC");
+            }
+            Field field = findField(c, parts[0]);
+            if (field == null) {
+                throw new IllegalArgumentException(c.getSimpleName() + " has no field " + parts[0] + " to merge the shards by");
+            }
+            Comparator<Object> byField = Comparator.comparing(o -> getValue(field, o), Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (descending) {
+                byField = byField.reversed();
+            }
+            order = (order == null) ? byField : order.thenComparing(byField);
+        }
+        return order;
+    }
+
+    private static Comparable getValue(Field field, Object object) {
+        try {
+            return (Comparable) field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Selects on the shard that owns the primary key code, or on all the shards.
+     */
+    private static List<Object> select(Class c, int codeId, String whereClause) throws SQLException,
+            InstantiationException,
+            IllegalAccessException,
+            NoSuchMethodException,
+            SecurityException,
+            InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        return select(c, codeId, whereClause, new Object[0], null, 0);
+    }
+
+    /**
+     * Selects on the shard that owns the primary key code, or on all the shards,
+     * binding the parameters of the where clause, sorting by orderBy when given
+     * and reading at most maxRows of each shard, 0 for all.
+     */
+    private static List<Object> select(Class c, int codeId, String whereClause, Object[] params, String orderBy, int maxRows) throws SQLException,
+            InstantiationException,
+            IllegalAccessException,
+            NoSuchMethodException,
+            SecurityException,
+            InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        int shard = (codeId > 0) ? getShard(c.getSimpleName(), codeId) : ALL_SHARDS;
+        if (shard != ALL_SHARDS) {
+            return select(c, codeId, whereClause, params, orderBy, maxRows, shard);
+        }
+        List<Object> list = new ArrayList<>();
+        for (List<Object> result : scatter(s -> select(c, codeId, whereClause, params, orderBy, maxRows, s))) {
+            list.addAll(result);
+        }
+        return list;
+    }
+
+    /**
+     * Selects all fields in the table of the shard.
      *
      * @param c
      * @param codeId
      * @param whereClause
+     * @param params
+     * @param orderBy
+     * @param maxRows
+     * @param shard
      * @return
      * @throws SQLException
      * @throws InstantiationException
@@ -243,18 +725,12 @@ public final class Database {
      * @throws InvocationTargetException
      * @throws ConnectionNotFoundException
      */
-    private static List<Object> select(Class c, int codeId, String whereClause) throws SQLException,
+    private static List<Object> select(Class c, int codeId, String whereClause, Object[] params, String orderBy, int maxRows, int shard) throws SQLException,
             InstantiationException,
             IllegalAccessException,
             NoSuchMethodException,
             SecurityException,
             InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
-        }
         List<Object> list = new ArrayList<>();
         String table = c.getSimpleName();
         String pk = getPK(c);
@@ -262,21 +738,41 @@ public final class Database {
         if (codeId > 0) {
             sql += " WHERE " + pk + " = ?";
         }
-        if (!whereClause.isEmpty()) {
+        if (whereClause != null && !whereClause.isEmpty()) {
             sql += " WHERE " + whereClause;
         }
+        if (orderBy != null) {
+            sql += " ORDER BY " + orderBy;
+        }
+        Set<String> associations = getAssociations(c);
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            if (maxRows > 0) {
+                stmt.setMaxRows(maxRows);
+            }
+            int index = 1;
             if (codeId > 0) {
-                stmt.setInt(1, codeId);
+                stmt.setInt(index++, codeId);
+            }
+            for (Object param : params) {
+                setParameter(stmt, index++, param);
             }
             try (ResultSet resultSet = stmt.executeQuery()) {
-                while (resultSet.next()) {
+                while ((maxRows == 0 || list.size() < maxRows) && resultSet.next()) {
                     Object obj = c.newInstance();
                     for (Method m : c.getMethods()) {
                         if (m.getName().substring(0, 3).equals("set")) {
                             Class[] args1 = new Class[1];
                             Class parameterTypes[] = m.getParameterTypes();
                             String field = m.getName().substring(3, m.getName().length());
+                            if (associations.contains(field.toLowerCase())) {
+                                continue;
+                            }
 
                             switch (parameterTypes[0].getName()) {
                                 case "java.lang.String":
@@ -327,47 +823,274 @@ public final class Database {
     }
 
 
+    /**
+     * Selects the fields in the table that meet the condition, with the associated objects.
+     * Each association is loaded with one query for all the objects, and the objects
+     * shared by several results are loaded only once.
+     *
+     * @param clazz        The class of objects that will be populated with the result of the query.
+     * @param whereClause  The condition, empty for all. <b>Ex: "name LIKE J%"</b>
+     * @param associations The attributes marked with {@link ManyToOne} or {@link OneToMany} to fill. <b>Ex: "customer"</b>
+     * @return The list of these objects. <b>Convert each one in turn.</b>
+     * @throws SQLException
+     * @throws InstantiationException
+     * @throws IllegalAccessException
+     * @throws NoSuchMethodException
+     * @throws SecurityException
+     * @throws InvocationTargetException
+     * @throws ConnectionNotFoundException
+     */
+    public static List<Object> fetch(Class clazz, String whereClause, String... associations) throws SQLException, InstantiationException, IllegalAccessException, NoSuchMethodException, SecurityException, InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        List<Field> fields = new ArrayList<>();
+        for (String association : associations) {
+            fields.add(getAssociation(clazz, association));
+        }
+        List<Object> list = select(clazz, 0, whereClause);
+        Map<Class, Map<Object, Object>> identityMap = new HashMap<>();
+        Field pk = findField(clazz, getPK(clazz));
+        if (pk != null) {
+            Map<Object, Object> loaded = getIdentities(identityMap, clazz);
+            for (int i = 0; i < list.size(); i++) {
+                Object key = getIdentity(pk.get(list.get(i)));
+                Object known = loaded.putIfAbsent(key, list.get(i));
+                if (known != null) {
+                    list.set(i, known);
+                }
+            }
+        }
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(ManyToOne.class)) {
+                fetchParents(list, field, identityMap);
+            } else {
+                fetchChildren(clazz, list, field, identityMap);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return The association attribute, after checking the attributes its annotation refers to.
+     * @throws IllegalArgumentException if the attribute is not an association or refers to missing attributes.
+     */
+    private static Field getAssociation(Class clazz, String association) throws SQLException, ConnectionNotFoundException {
+        Field field = findField(clazz, association);
+        if (field == null || !isAssociation(field)) {
+            throw new IllegalArgumentException("Not an association: " + association);
+        }
+        if (field.isAnnotationPresent(ManyToOne.class)) {
+            getAttribute(clazz, field.getAnnotation(ManyToOne.class).foreignKey(), association);
+            getAttribute(field.getType(), getPK(field.getType()), association);
+        } else {
+            OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+            if (!field.getType().isAssignableFrom(ArrayList.class)) {
+                throw new IllegalArgumentException("Association " + association + " must be a List");
+            }
+            getAttribute(clazz, getPK(clazz), association);
+            getAttribute(oneToMany.target(), oneToMany.foreignKey(), association);
+            getAttribute(oneToMany.target(), getPK(oneToMany.target()), association);
+        }
+        return field;
+    }
+
+    /**
+     * @return The declared attribute with the name, ignoring case.
+     * @throws IllegalArgumentException if the class has no such attribute.
+     */
+    private static Field getAttribute(Class c, String name, String association) {
+        Field field = findField(c, name);
+        if (field == null) {
+            throw new IllegalArgumentException("Association " + association + " refers to a missing attribute: " + c.getSimpleName() + "." + name);
+        }
+        return field;
+    }
+
+    private static void fetchParents(List<Object> list, Field field, Map<Class, Map<Object, Object>> identityMap) throws SQLException, InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        Class target = field.getType();
+        Field foreignKey = getAttribute(field.getDeclaringClass(), field.getAnnotation(ManyToOne.class).foreignKey(), field.getName());
+        Map<Object, Object> parents = getIdentities(identityMap, target);
+        Set<Object> missing = new LinkedHashSet<>();
+        for (Object obj : list) {
+            Object key = foreignKey.get(obj);
+            if (key != null && !parents.containsKey(getIdentity(key))) {
+                missing.add(key);
+            }
+        }
+        String pk = getPK(target);
+        Field pkField = getAttribute(target, pk, field.getName());
+        for (Object parent : selectIn(target, pk, missing)) {
+            parents.putIfAbsent(getIdentity(pkField.get(parent)), parent);
+        }
+        for (Object obj : list) {
+            field.set(obj, parents.get(getIdentity(foreignKey.get(obj))));
+        }
+    }
+
+    private static void fetchChildren(Class clazz, List<Object> list, Field field, Map<Class, Map<Object, Object>> identityMap) throws SQLException, InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+        Class target = oneToMany.target();
+        Field pkField = getAttribute(clazz, getPK(clazz), field.getName());
+        Field foreignKey = getAttribute(target, oneToMany.foreignKey(), field.getName());
+        Field targetPk = getAttribute(target, getPK(target), field.getName());
+        Set<Object> keys = new LinkedHashSet<>();
+        for (Object obj : list) {
+            keys.add(pkField.get(obj));
+        }
+        Map<Object, Object> loaded = getIdentities(identityMap, target);
+        Map<Object, List<Object>> children = new HashMap<>();
+        for (Object child : selectIn(target, foreignKey.getName(), keys)) {
+            Object known = loaded.putIfAbsent(getIdentity(targetPk.get(child)), child);
+            child = (known != null) ? known : child;
+            children.computeIfAbsent(getIdentity(foreignKey.get(child)), k -> new ArrayList<>()).add(child);
+        }
+        for (Object obj : list) {
+            List<Object> found = children.get(getIdentity(pkField.get(obj)));
+            field.set(obj, (found == null) ? new ArrayList<>() : found);
+        }
+    }
+
+    /**
+     * Selects the objects whose field is one of the values, in batches of FETCH_BATCH_SIZE.
+     */
+    private static List<Object> selectIn(Class c, String field, Set<Object> values) throws SQLException, InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException, ConnectionNotFoundException, InvalidTypeArgsException {
+        List<Object> list = new ArrayList<>();
+        List<Object> batch = new ArrayList<>(values);
+        for (int start = 0; start < batch.size(); start += FETCH_BATCH_SIZE) {
+            List<Object> params = batch.subList(start, Math.min(start + FETCH_BATCH_SIZE, batch.size()));
+            StringBuilder where = new StringBuilder(field).append(" IN (");
+            for (int i = 0; i < params.size(); i++) {
+                where.append((i == 0) ? "?" : ", ?");
+            }
+            where.append(")");
+            list.addAll(select(c, 0, where.toString(), params.toArray(), null, 0));
+        }
+        return list;
+    }
+
+    private static Map<Object, Object> getIdentities(Map<Class, Map<Object, Object>> identityMap, Class c) {
+        return identityMap.computeIfAbsent(c, k -> new LinkedHashMap<>());
+    }
+
+    /**
+     * @return The key of the identity map, so that int and long codes are the same object.
+     */
+    private static Object getIdentity(Object code) {
+        if (code instanceof Integer || code instanceof Long || code instanceof Short || code instanceof Byte) {
+            return ((Number) code).longValue();
+        }
+        return code;
+    }
+
+    private static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToMany.class);
+    }
+
+    /**
+     * @return The lower case names of the association attributes, which are not columns.
+     */
+    private static Set<String> getAssociations(Class c) {
+        Set<String> associations = new HashSet<>();
+        for (Field field : c.getDeclaredFields()) {
+            if (isAssociation(field)) {
+                associations.add(field.getName().toLowerCase());
+            }
+        }
+        return associations;
+    }
+
+    /**
+     * @return The declared attribute with the name, ignoring case, or null.
+     */
+    private static Field findField(Class c, String name) {
+        for (Field field : c.getDeclaredFields()) {
+            if (field.getName().equalsIgnoreCase(name)) {
+                field.setAccessible(true);
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static void setParameter(PreparedStatement stmt, int index, Object value) throws SQLException, InvalidTypeArgsException {
+        if (value instanceof Integer) {
+            stmt.setInt(index, (Integer) value);
+        } else if (value instanceof String) {
+            stmt.setString(index, (String) value);
+        } else if (value instanceof Double) {
+            stmt.setDouble(index, (Double) value);
+        } else if (value instanceof Character) {
+            stmt.setString(index, "" + ((Character) value));
+        } else if (value instanceof Date) {
+            stmt.setDate(index, (Date) value);
+        } else if (value instanceof LocalDate) {
+            stmt.setDate(index, DateUtil.getSQLDate((LocalDate) value));
+        } else if (value instanceof Long) {
+            stmt.setLong(index, (Long) value);
+        } else {
+            throw new InvalidTypeArgsException(value.getClass().getSimpleName());
+        }
+    }
+
     public static ResultSet select(String tableName) throws ConnectionNotFoundException, SQLException {
         return select(tableName, 0);
     }
 
     public static ResultSet select(String tableName, int id) throws ConnectionNotFoundException, SQLException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
+        int shard = (id > 0) ? getShard(tableName, id) : ALL_SHARDS;
+        if (shard == ALL_SHARDS && isSharded()) {
+            throw new IllegalStateException("The select by table name reads a single shard, use select(Class, String) with shards");
         }
         String sql = "SELECT * FROM " + tableName;
         if (id > 0) {
             sql += " WHERE " + getPK(tableName) + " = " + id;
         }
+        Connection connection;
+        try {
+            connection = getConnection(Math.max(shard, 0));
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         PreparedStatement stmt = connection.prepareStatement(sql);
         connection.close();
         return stmt.executeQuery();
     }
 
+    /**
+     * @return The primary key of the table, read once from the first database and then kept,
+     * so the operations do not open one more connection for each table they touch.
+     */
     private static String getPK(String tableName) throws SQLException, ConnectionNotFoundException {
+        String pK = primaryKeys.get(tableName.toLowerCase());
+        if (pK == null) {
+            pK = readPK(tableName);
+            primaryKeys.put(tableName.toLowerCase(), pK);
+        }
+        return pK;
+    }
+
+    private static String readPK(String tableName) throws SQLException, ConnectionNotFoundException {
         Connection connection;
         try {
-            connection = getConnection();
+            connection = getConnection(0, false);
         } catch (ClassNotFoundException e) {
             throw new ConnectionNotFoundException();
         }
         String pK = "";
-        String database;
-        database = connection.getCatalog();
-        String sql = "SELECT information_schema.KEY_COLUMN_USAGE.COLUMN_NAME as \"chave\" \n"
-                + "FROM information_schema.KEY_COLUMN_USAGE \n"
-                + "WHERE information_schema.KEY_COLUMN_USAGE.CONSTRAINT_NAME LIKE \"PRIMARY\" \n"
-                + "AND information_schema.KEY_COLUMN_USAGE.TABLE_SCHEMA LIKE \"" + database + "\""
-                + " AND information_schema.KEY_COLUMN_USAGE.TABLE_NAME LIKE \"" + tableName + "\"";
-        PreparedStatement stmt = connection.prepareCall(sql);
-        ResultSet resultSet = stmt.executeQuery();
-        while (resultSet.next()) {
-            pK = resultSet.getString("chave");
+        try {
+            String database;
+            database = connection.getCatalog();
+            String sql = "SELECT information_schema.KEY_COLUMN_USAGE.COLUMN_NAME as \"chave\" \n"
+                    + "FROM information_schema.KEY_COLUMN_USAGE \n"
+                    + "WHERE information_schema.KEY_COLUMN_USAGE.CONSTRAINT_NAME LIKE \"PRIMARY\" \n"
+                    + "AND information_schema.KEY_COLUMN_USAGE.TABLE_SCHEMA LIKE \"" + database + "\""
+                    + " AND information_schema.KEY_COLUMN_USAGE.TABLE_NAME LIKE \"" + tableName + "\"";
+            PreparedStatement stmt = connection.prepareCall(sql);
+            ResultSet resultSet = stmt.executeQuery();
+            while (resultSet.next()) {
+                pK = resultSet.getString("chave");
+            }
+        } finally {
+            connection.close();
         }
-        connection.close();
         return pK;
     }
 
@@ -403,15 +1126,19 @@ public final class Database {
      * @throws ConnectionNotFoundException
      */
     public static void update(Object object, String whereClause) throws ClassNotFoundException, SQLException, IllegalArgumentException, IllegalAccessException, ConnectionNotFoundException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
-        }
         String className = object.getClass().getName();
         Class clazz;
         clazz = Class.forName(className);
+        if (!whereClause.isEmpty()) {
+            for (int shard : getShards(ALL_SHARDS)) {
+                update(object, whereClause, clazz, shard);
+            }
+        } else {
+            update(object, whereClause, clazz, getShard(object, clazz));
+        }
+    }
+
+    private static void update(Object object, String whereClause, Class clazz, int shard) throws SQLException, IllegalAccessException, ConnectionNotFoundException {
         String pK = getPK(clazz);
         StringBuilder fields = new StringBuilder();
         String where = "";
@@ -420,7 +1147,7 @@ public final class Database {
         for (int i = 0; i < declaredFields.length; i++) {
             Field fld = declaredFields[i];
             fld.setAccessible(true);
-            if (fld.get(object) != null) {
+            if (fld.get(object) != null && !isAssociation(fld)) {
                 if (fld.getType().toString().equals("int") && fld.getName().equalsIgnoreCase(pK)) {
                     where = (whereClause.isEmpty()) ? fld.getName() + " = '" + fld.get(object) + "'" : whereClause;
                 } else if (!fld.getName().equalsIgnoreCase(pK) && !fld.get(object).equals(0)) {
@@ -435,6 +1162,12 @@ public final class Database {
             fields = new StringBuilder(fields.substring(0, fields.length() - 2));
         }
         String sql = "UPDATE " + table + " SET " + fields + " WHERE " + where + "";
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareCall(sql)) {
             stmt.execute();
         } finally {
@@ -474,12 +1207,13 @@ public final class Database {
     }
 
     private static void update(String tableName, HashMap<String, Object> fieldsAndValues, int codeId, String whereClause) throws SQLException, InvalidTypeArgsException, ConnectionNotFoundException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
+        int shard = (whereClause.isEmpty()) ? getShardById(tableName, codeId) : ALL_SHARDS;
+        for (int s : getShards(shard)) {
+            update(tableName, fieldsAndValues, codeId, whereClause, s);
         }
+    }
+
+    private static void update(String tableName, HashMap<String, Object> fieldsAndValues, int codeId, String whereClause, int shard) throws SQLException, InvalidTypeArgsException, ConnectionNotFoundException {
         String pk = getPK(tableName);
         String sql = "UPDATE " + tableName + " SET ";
         String where = " WHERE ";
@@ -491,32 +1225,25 @@ public final class Database {
         sql = sql.substring(0, sql.lastIndexOf(","));
         where += (whereClause.isEmpty()) ? pk + " = ?" : whereClause;
         sql = sql + where;
-        PreparedStatement stmt = connection.prepareStatement(sql);
-        int index = 1;
-        for (Object value : fieldsAndValues.values()) {
-            if (value instanceof Integer) {
-                stmt.setInt(index, (Integer) value);
-            } else if (value instanceof String) {
-                stmt.setString(index, (String) value);
-            } else if (value instanceof Date) {
-                stmt.setDate(index, (Date) value);
-            } else if (value instanceof Character) {
-                stmt.setString(index, "" + ((Character) value));
-            } else if (value instanceof Double) {
-                stmt.setDouble(index, (Double) value);
-            } else if (value instanceof LocalDate) {
-                stmt.setDate(index, DateUtil.getSQLDate((LocalDate) value));
-            } else {
-                throw new InvalidTypeArgsException(value.getClass().getSimpleName());
-            }
-            index++;
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
         }
-        if (whereClause.isEmpty()) {
-            stmt.setInt(fieldsAndValues.size() + 1, codeId);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (Object value : fieldsAndValues.values()) {
+                setParameter(stmt, index, value);
+                index++;
+            }
+            if (whereClause.isEmpty()) {
+                stmt.setInt(fieldsAndValues.size() + 1, codeId);
+            }
+            stmt.execute();
+        } finally {
+            connection.close();
         }
-        stmt.execute();
-        stmt.close();
-        connection.close();
     }
 
     /**
@@ -547,13 +1274,14 @@ public final class Database {
      * @throws ConnectionNotFoundException
      */
     public static void delete(Object object, String whereClause) throws SQLException, ClassNotFoundException, IllegalAccessException, ConnectionNotFoundException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
-        }
         Class cls = Class.forName(object.getClass().getName());
+        int shard = (whereClause.isEmpty()) ? getShard(object, cls) : ALL_SHARDS;
+        for (int s : getShards(shard)) {
+            delete(object, whereClause, cls, s);
+        }
+    }
+
+    private static void delete(Object object, String whereClause, Class cls, int shard) throws SQLException, IllegalAccessException, ConnectionNotFoundException {
         String table = cls.getSimpleName();
         String sql = "DELETE FROM " + table + " WHERE ";
         int idCode = 0;
@@ -571,6 +1299,12 @@ public final class Database {
         } else {
             sql += whereClause;
         }
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             if (whereClause.isEmpty()) {
                 stmt.setInt(1, idCode);
@@ -608,22 +1342,29 @@ public final class Database {
     }
 
     private static void delete(String tableName, int codeId, String whereClause) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
-        Connection connection;
-        try {
-            connection = getConnection();
-        } catch (ClassNotFoundException e) {
-            throw new ConnectionNotFoundException();
-        }
         if (codeId <= 0) {
             if (whereClause.isEmpty()) {
                 throw new InvalidTypeArgsException();
             }
         }
+        int shard = (whereClause.isEmpty()) ? getShardById(tableName, codeId) : ALL_SHARDS;
+        for (int s : getShards(shard)) {
+            delete(tableName, codeId, whereClause, s);
+        }
+    }
+
+    private static void delete(String tableName, int codeId, String whereClause, int shard) throws SQLException, ConnectionNotFoundException {
         String pk = getPK(tableName);
         String sql = "DELETE FROM " + tableName;
         String where = " WHERE ";
         where += (whereClause.isEmpty()) ? pk + " = ?" : whereClause;
         sql += where;
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             if (whereClause.isEmpty()) {
                 stmt.setInt(1, codeId);
@@ -634,10 +1375,218 @@ public final class Database {
         }
     }
 
+    /**
+     * Count the rows in the table that meet the condition, without loading them.
+     *
+     * @param clazz       The class whose name is the name of the table.
+     * @param whereClause The condition, empty for all. <b>Ex: "age > ?"</b>
+     * @param params      The values of the ? in the condition. <b>Ex: 18</b>
+     * @return The number of rows.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     * @throws InvalidTypeArgsException
+     */
+    public static long count(Class clazz, String whereClause, Object... params) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        Long count = countBy(clazz, null, whereClause, params).get(null);
+        return (count == null) ? 0 : count;
+    }
+
+    /**
+     * Count the rows in the table that meet the condition, by each value of the group column.
+     *
+     * @param clazz       The class whose name is the name of the table.
+     * @param groupColumn The column to group by. <b>Ex: "city"</b>
+     * @param whereClause The condition, empty for all. <b>Ex: "age > ?"</b>
+     * @param params      The values of the ? in the condition. <b>Ex: 18</b>
+     * @return The number of rows of each group.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     * @throws InvalidTypeArgsException
+     */
+    public static Map<Object, Long> countBy(Class clazz, String groupColumn, String whereClause, Object... params) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        for (Map<Object, Partial> result : scatter(s -> aggregateShard(clazz, null, "COUNT(*)", groupColumn, whereClause, params, s))) {
+            for (Map.Entry<Object, Partial> entry : result.entrySet()) {
+                counts.merge(entry.getKey(), entry.getValue().count, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Check if there is any row in the table that meets the condition, without loading it.
+     *
+     * @param clazz       The class whose name is the name of the table.
+     * @param whereClause The condition, empty for any row. <b>Ex: "name = ?"</b>
+     * @param params      The values of the ? in the condition. <b>Ex: "Foo"</b>
+     * @return true if a row exists.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     * @throws InvalidTypeArgsException
+     */
+    public static boolean exists(Class clazz, String whereClause, Object... params) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        for (boolean found : scatter(s -> exists(clazz, whereClause, params, s))) {
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean exists(Class clazz, String whereClause, Object[] params, int shard) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        String sql = "SELECT 1 FROM " + clazz.getSimpleName();
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql += " WHERE " + whereClause;
+        }
+        sql += " LIMIT 1";
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                setParameter(stmt, i + 1, params[i]);
+            }
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                return resultSet.next();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Compute the aggregate of the column in the rows that meet the condition, without loading them.
+     *
+     * @param clazz       The class whose name is the name of the table.
+     * @param column      The column to aggregate. <b>Ex: "salary"</b>
+     * @param function    The aggregate function. <b>Ex: Aggregate.SUM</b>
+     * @param whereClause The condition, empty for all. <b>Ex: "age > ?"</b>
+     * @param params      The values of the ? in the condition. <b>Ex: 18</b>
+     * @return The result, or NaN when no row has a value.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     * @throws InvalidTypeArgsException
+     */
+    public static double aggregate(Class clazz, String column, Aggregate function, String whereClause, Object... params) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        Double value = aggregateBy(clazz, column, function, null, whereClause, params).get(null);
+        return (value == null) ? Double.NaN : value;
+    }
+
+    /**
+     * Compute the aggregate of the column in the rows that meet the condition, by each value of the group column.
+     *
+     * @param clazz       The class whose name is the name of the table.
+     * @param column      The column to aggregate. <b>Ex: "salary"</b>
+     * @param function    The aggregate function. <b>Ex: Aggregate.AVG</b>
+     * @param groupColumn The column to group by. <b>Ex: "city"</b>
+     * @param whereClause The condition, empty for all. <b>Ex: "age > ?"</b>
+     * @param params      The values of the ? in the condition. <b>Ex: 18</b>
+     * @return The result of each group, NaN when no row of the group has a value.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     * @throws InvalidTypeArgsException
+     */
+    public static Map<Object, Double> aggregateBy(Class clazz, String column, Aggregate function, String groupColumn, String whereClause, Object... params) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        // AVG is sent as SUM, so that the shards can be combined with the counts.
+        String expression = ((function == Aggregate.AVG) ? "SUM" : function.name()) + "(" + column + ")";
+        Map<Object, Partial> totals = new LinkedHashMap<>();
+        for (Map<Object, Partial> result : scatter(s -> aggregateShard(clazz, expression, "COUNT(" + column + ")", groupColumn, whereClause, params, s))) {
+            for (Map.Entry<Object, Partial> entry : result.entrySet()) {
+                Partial partial = entry.getValue();
+                Partial total = totals.get(entry.getKey());
+                if (total == null || total.count == 0) {
+                    totals.put(entry.getKey(), partial);
+                } else if (partial.count > 0) {
+                    switch (function) {
+                        case MIN:
+                            total.value = total.value.min(partial.value);
+                            break;
+                        case MAX:
+                            total.value = total.value.max(partial.value);
+                            break;
+                        default:
+                            total.value = total.value.add(partial.value);
+                    }
+                    total.count += partial.count;
+                }
+            }
+        }
+        Map<Object, Double> values = new LinkedHashMap<>();
+        for (Map.Entry<Object, Partial> entry : totals.entrySet()) {
+            Partial total = entry.getValue();
+            if (total.count == 0) {
+                values.put(entry.getKey(), Double.NaN);
+            } else if (function == Aggregate.AVG) {
+                values.put(entry.getKey(), total.value.divide(BigDecimal.valueOf(total.count), MathContext.DECIMAL64).doubleValue());
+            } else {
+                values.put(entry.getKey(), total.value.doubleValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Run the aggregate expressions in the shard.
+     *
+     * @param valueExpression The value to aggregate, null to only count. <b>Ex: "SUM(salary)"</b>
+     * @param countExpression The count of the rows. <b>Ex: "COUNT(salary)"</b>
+     * @return The partial results by group, or by null when there is no group column.
+     */
+    private static Map<Object, Partial> aggregateShard(Class clazz, String valueExpression, String countExpression, String groupColumn, String whereClause, Object[] params, int shard) throws SQLException, ConnectionNotFoundException, InvalidTypeArgsException {
+        boolean grouped = groupColumn != null && !groupColumn.isEmpty();
+        String sql = "SELECT " + (grouped ? groupColumn + ", " : "")
+                + (valueExpression != null ? valueExpression + ", " : "")
+                + countExpression + " FROM " + clazz.getSimpleName();
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql += " WHERE " + whereClause;
+        }
+        if (grouped) {
+            sql += " GROUP BY " + groupColumn;
+        }
+        Connection connection;
+        try {
+            connection = getConnection(shard);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectionNotFoundException();
+        }
+        Map<Object, Partial> result = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                setParameter(stmt, i + 1, params[i]);
+            }
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                int column = grouped ? 2 : 1;
+                while (resultSet.next()) {
+                    Partial partial = new Partial();
+                    if (valueExpression != null) {
+                        partial.value = resultSet.getBigDecimal(column);
+                    }
+                    partial.count = resultSet.getLong((valueExpression != null) ? column + 1 : column);
+                    result.put(grouped ? resultSet.getObject(1) : null, partial);
+                }
+            }
+        } finally {
+            connection.close();
+        }
+        return result;
+    }
+
+    /**
+     * Execute the statements in a transaction. The statements come from connections of
+     * {@link #getConnection()}, which already hold their places in the limiter, so this
+     * one is not limited.
+     *
+     * @param statements The statements to execute.
+     * @throws SQLException
+     * @throws ConnectionNotFoundException
+     */
     public static void makeTransaction(PreparedStatement[] statements) throws SQLException, ConnectionNotFoundException {
         Connection connection;
         try {
-            connection = getConnection();
+            connection = getConnection(0, false);
         } catch (ClassNotFoundException e) {
             throw new ConnectionNotFoundException();
         }
@@ -662,5 +1611,37 @@ public final class Database {
             }
         }
     }
+
+    private interface ShardTask<T> {
+        T run(int shard) throws Exception;
+    }
+
+    /**
+     * The result of an aggregate in one shard, combined with the other shards.
+     */
+    private static final class Partial {
+        private BigDecimal value;
+        private long count;
+    }
+
+    private static final class TableShardKey {
+        private final ShardKey shardKey;
+        private final String field;
+
+        private TableShardKey(ShardKey shardKey, String field) {
+            this.shardKey = shardKey;
+            this.field = field;
+        }
+    }
+
+    private static final class Shard {
+        private final String url, user, password;
+
+        private Shard(String url, String user, String password) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+        }
+    }
 }
 
@@ -0,0 +1,31 @@
+package br.com.julianozanella.util.association;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the attribute that holds the parent object, referenced by a foreign key
+ * attribute of the same class. The attribute is not a column, it is filled by
+ * {@code Database.fetch}.
+ * <pre>
+ * public class Orders {
+ *     private int id;
+ *     private int customerId;
+ *     &#64;ManyToOne(foreignKey = "customerId")
+ *     private Customer customer;
+ * }
+ * </pre>
+ *
+ * @author Juliano Zanella
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ManyToOne {
+
+    /**
+     * @return The attribute of this class with the primary key of the parent. Ex: <b>"customerId"</b>
+     */
+    String foreignKey();
+}
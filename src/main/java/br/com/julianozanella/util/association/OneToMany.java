@@ -0,0 +1,35 @@
+package br.com.julianozanella.util.association;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the {@code List} attribute that holds the children objects, whose foreign key
+ * attribute references the primary key of this class. The attribute is not a column,
+ * it is filled by {@code Database.fetch}.
+ * <pre>
+ * public class Customer {
+ *     private int id;
+ *     &#64;OneToMany(target = Orders.class, foreignKey = "customerId")
+ *     private List&lt;Orders&gt; orders;
+ * }
+ * </pre>
+ *
+ * @author Juliano Zanella
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface OneToMany {
+
+    /**
+     * @return The class of the children.
+     */
+    Class target();
+
+    /**
+     * @return The attribute of the children with the primary key of this class. Ex: <b>"customerId"</b>
+     */
+    String foreignKey();
+}
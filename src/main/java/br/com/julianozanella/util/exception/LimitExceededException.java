@@ -0,0 +1,25 @@
+package br.com.julianozanella.util.exception;
+
+import java.sql.SQLTransientException;
+
+/**
+ * Too many operations in progress. The database is overloaded, try again later.
+ * @author Juliano Zanella
+ */
+public class LimitExceededException extends SQLTransientException {
+
+    private final int limit;
+
+    public LimitExceededException(int limit) {
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Concurrency limit exceeded: " + limit;
+    }
+}
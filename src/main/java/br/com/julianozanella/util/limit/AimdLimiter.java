@@ -0,0 +1,87 @@
+package br.com.julianozanella.util.limit;
+
+/**
+ * Adaptive limit of concurrent database operations. The limit grows by one while the
+ * operations are faster than the latency target and drops by the backoff ratio
+ * when they are slower, so the in-flight queries follow what the database can handle.
+ *
+ * @author Juliano Zanella
+ */
+public class AimdLimiter {
+
+    private final int minLimit, maxLimit;
+    private final long targetNanos;
+    private final double backoffRatio;
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param initialLimit  The starting number of concurrent operations.
+     * @param minLimit      The lowest limit. Ex: 1
+     * @param maxLimit      The highest limit.
+     * @param targetMillis  The latency above which the limit is reduced.
+     */
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long targetMillis) {
+        this(initialLimit, minLimit, maxLimit, targetMillis, 0.9);
+    }
+
+    /**
+     * @param initialLimit  The starting number of concurrent operations.
+     * @param minLimit      The lowest limit. Ex: 1
+     * @param maxLimit      The highest limit.
+     * @param targetMillis  The latency above which the limit is reduced.
+     * @param backoffRatio  The factor applied to the limit on slow operations, between 0 and 1.
+     */
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long targetMillis, double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Expected 0 < backoffRatio < 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetMillis * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * @return true if the operation may start, false if the limit is reached.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Finish an operation started by {@link #tryAcquire()} and adjust the limit.
+     *
+     * @param latencyNanos How long the operation took.
+     */
+    public synchronized void release(long latencyNanos) {
+        inFlight--;
+        if (latencyNanos > targetNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if ((inFlight + 1) * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * @return The current number of concurrent operations allowed.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return The number of operations in progress.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
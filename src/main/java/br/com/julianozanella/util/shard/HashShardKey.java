@@ -0,0 +1,17 @@
+package br.com.julianozanella.util.shard;
+
+/**
+ * Spreads the rows over the shards by the hash of the key.
+ *
+ * @author Juliano Zanella
+ */
+public class HashShardKey implements ShardKey {
+
+    @Override
+    public int getShard(Object key, int shards) {
+        if (key == null) {
+            return 0;
+        }
+        return Math.floorMod(key.hashCode(), shards);
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.julianozanella.util.shard;
+
+/**
+ * Splits the rows over the shards by numeric ranges of the key.
+ * <b>Ex: new RangeShardKey(1000, 2000)</b> sends keys below 1000 to the shard 0,
+ * keys below 2000 to the shard 1 and the others to the shard 2.
+ *
+ * @author Juliano Zanella
+ */
+public class RangeShardKey implements ShardKey {
+
+    private final long[] upperBounds;
+
+    /**
+     * @param upperBounds The exclusive upper bound of each shard, in ascending order.
+     *                    The keys must be numbers.
+     *                    The last shard receives the keys above the last bound.
+     */
+    public RangeShardKey(long... upperBounds) {
+        this.upperBounds = upperBounds.clone();
+    }
+
+    @Override
+    public int getShard(Object key, int shards) {
+        if (key == null) {
+            return 0;
+        }
+        long value;
+        if (key instanceof Number) {
+            value = ((Number) key).longValue();
+        } else {
+            try {
+                value = Long.parseLong(key.toString());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("RangeShardKey needs a numeric key: " + key);
+            }
+        }
+        int shard = 0;
+        while (shard < upperBounds.length && value >= upperBounds[shard]) {
+            shard++;
+        }
+        return Math.min(shard, shards - 1);
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.julianozanella.util.shard;
+
+/**
+ * Chooses the shard that owns a row, based on the value of its shard key
+ * (the primary key or the field chosen in {@code Database.setShardKey}).
+ *
+ * @author Juliano Zanella
+ */
+public interface ShardKey {
+
+    /**
+     * @param key    The value of the shard key field. May be null.
+     * @param shards The number of registered shards.
+     * @return The shard index, between 0 and shards - 1.
+     */
+    int getShard(Object key, int shards);
+}
@@ -0,0 +1,45 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.association.OneToMany;
+
+import java.util.List;
+
+public class Customer {
+
+    private int id;
+    private String name;
+    @OneToMany(target = Orders.class, foreignKey = "customerId")
+    private List<Orders> orders;
+
+    public Customer() {
+    }
+
+    public Customer(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Orders> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Orders> orders) {
+        this.orders = orders;
+    }
+}
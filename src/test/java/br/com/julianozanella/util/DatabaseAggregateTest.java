@@ -0,0 +1,102 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.exception.InvalidTypeArgsException;
+import br.com.julianozanella.util.limit.AimdLimiter;
+import br.com.julianozanella.util.shard.HashShardKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseAggregateTest {
+
+    private static final String SHARD_0 = RecordingDriver.PREFIX + "0";
+    private static final String SHARD_1 = RecordingDriver.PREFIX + "1";
+
+    @Before
+    public void setUp() throws Exception {
+        RecordingDriver.register();
+        Database.createConnection(RecordingDriver.PREFIX + "single", "", "");
+        Database.addShard(SHARD_0, "", "");
+        Database.addShard(SHARD_1, "", "");
+        Database.setShardKey(new HashShardKey());
+    }
+
+    @After
+    public void tearDown() {
+        Database.clearShards();
+        Database.setLimiter(null);
+    }
+
+    @Test
+    public void nullConditionCountsAllRows() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "count", 1L);
+        assertEquals(1, Database.count(Person.class, null));
+        assertEquals("SELECT COUNT(*) FROM Person", RecordingDriver.getStatements(SHARD_0).get(0));
+    }
+
+    @Test
+    public void failedQueriesReleaseTheirPermits() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(2, 2, 2, 10_000);
+        Database.setLimiter(limiter);
+        try {
+            Database.exists(Person.class, null);
+            Database.count(Person.class, "age > ?", 1.5f);
+            fail();
+        } catch (InvalidTypeArgsException expected) {
+            assertEquals(0, limiter.getInFlight());
+        }
+        try {
+            Database.aggregate(Person.class, "age", Aggregate.SUM, "age > ?", 1.5f);
+            fail();
+        } catch (InvalidTypeArgsException expected) {
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    @Test
+    public void countIsSummedWithoutLosingPrecision() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "count", 9_007_199_254_740_993L);
+        RecordingDriver.addRow(SHARD_1, "Person", "count", 2L);
+        assertEquals(9_007_199_254_740_995L, Database.count(Person.class, "age > ?", 18));
+        assertEquals("SELECT COUNT(*) FROM Person WHERE age > ?", RecordingDriver.getStatements(SHARD_0).get(0));
+    }
+
+    @Test
+    public void averageIsWeightedByTheShardCounts() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "sum", 10, "count", 2L);
+        RecordingDriver.addRow(SHARD_1, "Person", "sum", 20, "count", 8L);
+        assertEquals(3.0, Database.aggregate(Person.class, "age", Aggregate.AVG, ""), 0);
+        assertEquals("SELECT SUM(age), COUNT(age) FROM Person", RecordingDriver.getStatements(SHARD_0).get(0));
+    }
+
+    @Test
+    public void minIgnoresEmptyShards() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "min", 7, "count", 1L);
+        RecordingDriver.addRow(SHARD_1, "Person", "min", null, "count", 0L);
+        assertEquals(7.0, Database.aggregate(Person.class, "age", Aggregate.MIN, ""), 0);
+    }
+
+    @Test
+    public void aggregateOfNoValuesIsNaN() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "max", null, "count", 0L);
+        RecordingDriver.addRow(SHARD_1, "Person", "max", null, "count", 0L);
+        assertTrue(Double.isNaN(Database.aggregate(Person.class, "age", Aggregate.MAX, "")));
+    }
+
+    @Test
+    public void groupsAreMergedAcrossShards() throws Exception {
+        RecordingDriver.addRow(SHARD_0, "Person", "city", "A", "max", 1, "count", 1L);
+        RecordingDriver.addRow(SHARD_0, "Person", "city", "B", "max", 5, "count", 1L);
+        RecordingDriver.addRow(SHARD_1, "Person", "city", "A", "max", 3, "count", 1L);
+        Map<Object, Double> maxByCity = Database.aggregateBy(Person.class, "age", Aggregate.MAX, "city", "");
+        assertEquals(2, maxByCity.size());
+        assertEquals(3.0, maxByCity.get("A"), 0);
+        assertEquals(5.0, maxByCity.get("B"), 0);
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.association.ManyToOne;
+import br.com.julianozanella.util.association.OneToMany;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseFetchTest {
+
+    private static final String URL = RecordingDriver.PREFIX + "single";
+
+    public static class BrokenCustomer {
+        private int id;
+        @OneToMany(target = Person.class, foreignKey = "customerId")
+        private List<Person> persons;
+    }
+
+    public static class BrokenOrders {
+        private int id;
+        private int customerId;
+        @ManyToOne(foreignKey = "clientId")
+        private BrokenCustomer customer;
+        private BrokenCustomer buyer;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        RecordingDriver.register();
+        Database.createConnection(URL, "", "");
+    }
+
+    @Test
+    public void parentsAreFetchedInOneQueryAndShared() throws Exception {
+        RecordingDriver.addRow(URL, "Orders", "id", 1, "customerId", 7);
+        RecordingDriver.addRow(URL, "Orders", "id", 2, "customerId", 7);
+        RecordingDriver.addRow(URL, "Customer", "id", 7, "name", "Foo");
+        List<Object> orders = Database.fetch(Orders.class, "", "customer");
+
+        assertEquals(2, orders.size());
+        Customer customer = ((Orders) orders.get(0)).getCustomer();
+        assertEquals(7, customer.getId());
+        assertSame(customer, ((Orders) orders.get(1)).getCustomer());
+        List<String> statements = RecordingDriver.getStatements(URL);
+        assertEquals(2, statements.size());
+        assertEquals("SELECT * FROM Customer WHERE id IN (?)", statements.get(1));
+    }
+
+    @Test
+    public void parentsAreFetchedInBatches() throws Exception {
+        for (int id = 1; id <= 501; id++) {
+            RecordingDriver.addRow(URL, "Orders", "id", id, "customerId", id);
+        }
+        Database.fetch(Orders.class, "", "customer");
+
+        List<String> statements = RecordingDriver.getStatements(URL);
+        assertEquals(3, statements.size());
+        assertEquals(500, placeholders(statements.get(1)));
+        assertEquals(1, placeholders(statements.get(2)));
+    }
+
+    @Test
+    public void childrenAreGroupedByTheirParent() throws Exception {
+        RecordingDriver.addRow(URL, "Customer", "id", 1, "name", "Foo");
+        RecordingDriver.addRow(URL, "Customer", "id", 2, "name", "Bar");
+        RecordingDriver.addRow(URL, "Orders", "id", 10, "customerId", 1);
+        RecordingDriver.addRow(URL, "Orders", "id", 11, "customerId", 1);
+        List<Object> customers = Database.fetch(Customer.class, "", "orders");
+
+        List<Orders> orders = ((Customer) customers.get(0)).getOrders();
+        assertEquals(2, orders.size());
+        assertEquals(10, orders.get(0).getId());
+        assertEquals(11, orders.get(1).getId());
+        assertTrue(((Customer) customers.get(1)).getOrders().isEmpty());
+        List<String> statements = RecordingDriver.getStatements(URL);
+        assertEquals(2, statements.size());
+        assertEquals("SELECT * FROM Orders WHERE customerId IN (?, ?)", statements.get(1));
+    }
+
+    @Test
+    public void missingForeignKeyIsRejectedBeforeQuerying() throws Exception {
+        assertRejected(BrokenOrders.class, "customer", "BrokenOrders.clientId");
+    }
+
+    @Test
+    public void missingChildForeignKeyIsRejectedBeforeQuerying() throws Exception {
+        assertRejected(BrokenCustomer.class, "persons", "Person.customerId");
+    }
+
+    @Test
+    public void attributeWithoutAnnotationIsRejected() throws Exception {
+        assertRejected(BrokenOrders.class, "buyer", "Not an association");
+    }
+
+    private static int placeholders(String sql) {
+        return sql.length() - sql.replace("?", "").length();
+    }
+
+    private static void assertRejected(Class clazz, String association, String message) throws Exception {
+        try {
+            Database.fetch(clazz, "", association);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(message));
+            assertTrue(RecordingDriver.getStatements(URL).isEmpty());
+        }
+    }
+}
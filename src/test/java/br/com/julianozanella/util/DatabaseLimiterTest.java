@@ -0,0 +1,111 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.exception.InvalidTypeArgsException;
+import br.com.julianozanella.util.exception.LimitExceededException;
+import br.com.julianozanella.util.limit.AimdLimiter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.util.HashMap;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseLimiterTest {
+
+    private static final String URL = RecordingDriver.PREFIX + "single";
+
+    private AimdLimiter limiter;
+
+    @Before
+    public void setUp() throws Exception {
+        RecordingDriver.register();
+        Database.createConnection(URL, "", "");
+        limiter = new AimdLimiter(1, 1, 1, 10_000);
+        Database.setLimiter(limiter);
+    }
+
+    @After
+    public void tearDown() {
+        Database.setLimiter(null);
+        Database.setQueryTimeout(0);
+        Database.clearDeadline();
+    }
+
+    @Test
+    public void queryTimeoutReachesTheStatementAndTheConnect() throws Exception {
+        Database.setQueryTimeout(30);
+        Database.select(Person.class, 1);
+
+        assertEquals(Integer.valueOf(30), RecordingDriver.getQueryTimeout(URL));
+        assertEquals("30000", RecordingDriver.getConnectProperties(URL).getProperty("connectTimeout"));
+    }
+
+    @Test
+    public void deadlineBoundsTheStatementAndTheConnect() throws Exception {
+        Database.setQueryTimeout(30);
+        Database.setDeadline(1500);
+        Database.select(Person.class, 1);
+
+        assertEquals(Integer.valueOf(2), RecordingDriver.getQueryTimeout(URL));
+        Properties properties = RecordingDriver.getConnectProperties(URL);
+        long connectTimeout = Long.parseLong(properties.getProperty("connectTimeout"));
+        assertTrue(String.valueOf(connectTimeout), connectTimeout > 0 && connectTimeout <= 1500);
+        assertEquals("", properties.getProperty("user"));
+    }
+
+    @Test
+    public void failedOperationsReleaseTheirPermit() throws Exception {
+        HashMap<String, Object> fieldsAndValues = new HashMap<>();
+        fieldsAndValues.put("name", 1.5f);
+        for (int i = 0; i < 3; i++) {
+            try {
+                Database.update("Person", fieldsAndValues, 1);
+                fail();
+            } catch (InvalidTypeArgsException expected) {
+                assertEquals(0, limiter.getInFlight());
+            }
+        }
+        Database.select(Person.class, 1);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void expiredDeadlineDoesNotHoldAPermit() throws Exception {
+        Database.setDeadline(-1);
+        try {
+            Database.delete("Person", 1);
+            fail();
+        } catch (SQLTimeoutException expected) {
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    @Test
+    public void primaryKeyIsLookedUpOncePerTable() throws Exception {
+        Database.addShard(RecordingDriver.PREFIX + "shard0", "", "");
+        Database.addShard(RecordingDriver.PREFIX + "shard1", "", "");
+        try {
+            Database.insert(new Person(1, "Foo"), false);
+            Database.insert(new Person(2, "Bar"), false);
+            Database.update(new Person(1, "Baz"));
+            Database.delete("Person", 2);
+            assertEquals(1, RecordingDriver.getPrimaryKeyLookups());
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            Database.clearShards();
+        }
+    }
+
+    @Test(expected = LimitExceededException.class)
+    public void operationsFailFastOverTheLimit() throws Exception {
+        try (Connection connection = Database.getConnection()) {
+            Database.select(Person.class, 1);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.shard.HashShardKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseShardTest {
+
+    private static final int SHARDS = 3;
+
+    @Before
+    public void setUp() throws Exception {
+        RecordingDriver.register();
+        Database.createConnection(RecordingDriver.PREFIX + "single", "", "");
+        for (int i = 0; i < SHARDS; i++) {
+            Database.addShard(shard(i), "", "");
+        }
+        Database.setShardKey(new HashShardKey());
+    }
+
+    @After
+    public void tearDown() {
+        Database.clearShards();
+        Database.setShardKey(new HashShardKey());
+    }
+
+    private static String shard(int index) {
+        return RecordingDriver.PREFIX + index;
+    }
+
+    @Test
+    public void insertSelectAndDeleteReachTheSameShard() throws Exception {
+        Person person = new Person(7, "Foo");
+        Database.insert(person, false);
+        Database.select(Person.class, 7);
+        Database.delete(person);
+
+        int owner = new HashShardKey().getShard(7, SHARDS);
+        List<String> statements = RecordingDriver.getStatements(shard(owner));
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(0).startsWith("INSERT"));
+        assertTrue(statements.get(1).startsWith("SELECT"));
+        assertTrue(statements.get(2).startsWith("DELETE"));
+        for (int i = 0; i < SHARDS; i++) {
+            if (i != owner) {
+                assertTrue(RecordingDriver.getStatements(shard(i)).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void selectByWhereClauseReachesAllShards() throws Exception {
+        Database.select(Person.class, "name = 'Foo'");
+        for (int i = 0; i < SHARDS; i++) {
+            assertEquals(1, RecordingDriver.getStatements(shard(i)).size());
+        }
+    }
+
+    @Test
+    public void selectWithLimitBoundsEachShardAndMergesInOrder() throws Exception {
+        for (int i = 0; i < SHARDS; i++) {
+            for (int id = i + 1; id <= 9; id += SHARDS) {
+                RecordingDriver.addRow(shard(i), "Person", "id", id, "name", "P" + id);
+            }
+        }
+        List<Object> persons = Database.select(Person.class, "id > 0", "id", 2);
+
+        assertEquals(2, persons.size());
+        assertEquals(1, ((Person) persons.get(0)).getId());
+        assertEquals(2, ((Person) persons.get(1)).getId());
+        for (int i = 0; i < SHARDS; i++) {
+            assertEquals(Integer.valueOf(2), RecordingDriver.getMaxRows(shard(i)));
+            assertEquals("SELECT * FROM Person WHERE id > 0 ORDER BY id", RecordingDriver.getStatements(shard(i)).get(0));
+        }
+    }
+
+    @Test
+    public void selectWithLimitMergesByDescendingOrder() throws Exception {
+        for (int i = 0; i < SHARDS; i++) {
+            for (int id = 9 - i; id > 0; id -= SHARDS) {
+                RecordingDriver.addRow(shard(i), "Person", "id", id, "name", "P" + id);
+            }
+        }
+        List<Object> persons = Database.select(Person.class, "", "name DESC, id", 3);
+
+        assertEquals(3, persons.size());
+        assertEquals(9, ((Person) persons.get(0)).getId());
+        assertEquals(8, ((Person) persons.get(1)).getId());
+        assertEquals(7, ((Person) persons.get(2)).getId());
+        assertEquals("SELECT * FROM Person ORDER BY name DESC, id", RecordingDriver.getStatements(shard(0)).get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectWithLimitIsRejectedWithoutAnOrder() throws Exception {
+        Database.select(Person.class, "id > 0", "", 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectWithLimitIsRejectedWhenOrderIsNotAField() throws Exception {
+        Database.select(Person.class, "id > 0", "LENGTH(name)", 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void autoIncrementInsertShardedByPrimaryKeyIsRejected() throws Exception {
+        Database.insert(new Person(0, "Foo"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void insertWithoutShardKeyIsRejected() throws Exception {
+        HashMap<String, Object> fieldsAndValues = new HashMap<>();
+        fieldsAndValues.put("name", "Foo");
+        Database.insert("Person", fieldsAndValues);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void autoIncrementInsertShardedByFieldIsRejected() throws Exception {
+        Database.setShardKey(Person.class, new HashShardKey(), "name");
+        Database.insert(new Person(0, "Foo"));
+    }
+
+    @Test
+    public void insertShardedByFieldIsRouted() throws Exception {
+        Database.setShardKey(Person.class, new HashShardKey(), "name");
+        Database.insert(new Person(7, "Foo"), false);
+
+        int owner = new HashShardKey().getShard("Foo", SHARDS);
+        assertEquals(1, RecordingDriver.getStatements(shard(owner)).size());
+    }
+
+    @Test
+    public void deleteAndUpdateByIdAreRejectedWhenShardedByField() throws Exception {
+        Database.setShardKey(Person.class, new HashShardKey(), "name");
+        HashMap<String, Object> fieldsAndValues = new HashMap<>();
+        fieldsAndValues.put("name", "Foo");
+        try {
+            Database.delete("Person", 7);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            Database.update("Person", fieldsAndValues, 7);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        for (int i = 0; i < SHARDS; i++) {
+            assertTrue(RecordingDriver.getStatements(shard(i)).isEmpty());
+        }
+    }
+
+    @Test
+    public void eachTableUsesItsOwnShardKey() throws Exception {
+        Database.setShardKey(Orders.class, new HashShardKey(), "customerId");
+        Database.insert(new Customer(4, "Foo"), false);
+        Database.insert(new Orders(8, 4), false);
+
+        int owner = new HashShardKey().getShard(4, SHARDS);
+        List<String> statements = RecordingDriver.getStatements(shard(owner));
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).startsWith("INSERT INTO Customer"));
+        assertTrue(statements.get(1).startsWith("INSERT INTO Orders"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void selectByTableNameIsRejectedWhenSharded() throws Exception {
+        Database.select("Person");
+    }
+}
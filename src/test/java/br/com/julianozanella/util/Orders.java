@@ -0,0 +1,43 @@
+package br.com.julianozanella.util;
+
+import br.com.julianozanella.util.association.ManyToOne;
+
+public class Orders {
+
+    private int id;
+    private int customerId;
+    @ManyToOne(foreignKey = "customerId")
+    private Customer customer;
+
+    public Orders() {
+    }
+
+    public Orders(int id, int customerId) {
+        this.id = id;
+        this.customerId = customerId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+}
@@ -0,0 +1,214 @@
+package br.com.julianozanella.util;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory JDBC driver that records the statements of each url and answers the
+ * queries of each table with the rows given by the test, without filtering them.
+ * The primary key of every table is "id".
+ */
+class RecordingDriver implements Driver {
+
+    static final String PREFIX = "jdbc:recording:";
+    private static final Pattern TABLE = Pattern.compile("FROM (\\w+)");
+    private static final Map<String, List<String>> statements = new ConcurrentHashMap<>();
+    private static final Map<String, List<Map<String, Object>>> rows = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> maxRows = new ConcurrentHashMap<>();
+    private static final AtomicInteger primaryKeyLookups = new AtomicInteger();
+    private static final Map<String, Properties> connectProperties = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> queryTimeouts = new ConcurrentHashMap<>();
+    private static boolean registered;
+
+    static synchronized void register() throws SQLException {
+        if (!registered) {
+            DriverManager.registerDriver(new RecordingDriver());
+            registered = true;
+        }
+        statements.clear();
+        rows.clear();
+        maxRows.clear();
+        primaryKeyLookups.set(0);
+        connectProperties.clear();
+        queryTimeouts.clear();
+    }
+
+    static List<String> getStatements(String url) {
+        return statements.getOrDefault(url, Collections.emptyList());
+    }
+
+    static Integer getMaxRows(String url) {
+        return maxRows.get(url);
+    }
+
+    static int getPrimaryKeyLookups() {
+        return primaryKeyLookups.get();
+    }
+
+    static Properties getConnectProperties(String url) {
+        return connectProperties.get(url);
+    }
+
+    static Integer getQueryTimeout(String url) {
+        return queryTimeouts.get(url);
+    }
+
+    /**
+     * @param columns The column names and values of the row, in pairs. Ex: "id", 1, "name", "Foo"
+     */
+    static void addRow(String url, String table, Object... columns) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i += 2) {
+            row.put(((String) columns[i]).toLowerCase(), columns[i + 1]);
+        }
+        rows.computeIfAbsent(key(url, table), k -> new CopyOnWriteArrayList<>()).add(row);
+    }
+
+    private static String key(String url, String table) {
+        return url + "/" + table.toLowerCase();
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        connectProperties.put(url, info);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "prepareCall":
+                    return statement(url, (String) args[0]);
+                case "getCatalog":
+                    return "test";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object statement(String url, String sql) {
+        boolean primaryKey = sql.contains("information_schema");
+        return Proxy.newProxyInstance(RecordingDriver.class.getClassLoader(), new Class[]{CallableStatement.class}, (proxy, method, args) -> {
+            if (method.getName().equals("setMaxRows")) {
+                maxRows.put(url, (Integer) args[0]);
+            } else if (method.getName().equals("setQueryTimeout")) {
+                queryTimeouts.put(url, (Integer) args[0]);
+            } else if (method.getName().startsWith("execute")) {
+                if (primaryKey) {
+                    primaryKeyLookups.incrementAndGet();
+                    List<Map<String, Object>> key = new ArrayList<>();
+                    key.add(Collections.singletonMap("chave", "id"));
+                    return resultSet(key);
+                }
+                statements.computeIfAbsent(url, k -> new CopyOnWriteArrayList<>()).add(sql);
+                Matcher table = TABLE.matcher(sql);
+                if (method.getReturnType() == ResultSet.class && table.find()) {
+                    return resultSet(rows.getOrDefault(key(url, table.group(1)), Collections.emptyList()));
+                }
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> result) {
+        int[] row = {-1};
+        Object[] last = {null};
+        return (ResultSet) Proxy.newProxyInstance(RecordingDriver.class.getClassLoader(), new Class[]{ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++row[0] < result.size();
+                case "wasNull":
+                    return last[0] == null;
+                case "close":
+                    return null;
+                default:
+                    if (!method.getName().startsWith("get") || args == null || args.length != 1) {
+                        return defaultValue(method.getReturnType());
+                    }
+            }
+            Map<String, Object> columns = result.get(row[0]);
+            Object value = (args[0] instanceof Integer)
+                    ? new ArrayList<>(columns.values()).get((Integer) args[0] - 1)
+                    : columns.get(((String) args[0]).toLowerCase());
+            last[0] = value;
+            Class type = method.getReturnType();
+            if (value == null) {
+                return defaultValue(type);
+            } else if (type == long.class) {
+                return ((Number) value).longValue();
+            } else if (type == int.class) {
+                return ((Number) value).intValue();
+            } else if (type == double.class) {
+                return ((Number) value).doubleValue();
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value.toString());
+            } else if (type == String.class) {
+                return value.toString();
+            }
+            return value;
+        });
+    }
+
+    private static Object defaultValue(Class type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return null;
+    }
+}
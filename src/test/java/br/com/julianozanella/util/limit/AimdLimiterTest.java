@@ -0,0 +1,76 @@
+package br.com.julianozanella.util.limit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AimdLimiterTest {
+
+    private static final long FAST = 1_000_000L;
+    private static final long SLOW = 500_000_000L;
+
+    @Test
+    public void tryAcquireStopsAtTheLimit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 100);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        limiter.release(FAST);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void fastOperationsGrowTheLimitUpToTheMax() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 100);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+        assertEquals(3, limiter.getLimit());
+        for (int round = 0; round < 50; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(FAST);
+            }
+        }
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void idleFastOperationsDoNotGrowTheLimit() {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 100, 100);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void slowOperationsBackOffDownToTheMin() {
+        AimdLimiter limiter = new AimdLimiter(10, 2, 10, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.release(SLOW);
+        assertEquals(5, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void initialLimitOutOfBoundsIsRejected() {
+        new AimdLimiter(20, 1, 10, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void backoffRatioOutOfBoundsIsRejected() {
+        new AimdLimiter(5, 1, 10, 100, 1.5);
+    }
+}
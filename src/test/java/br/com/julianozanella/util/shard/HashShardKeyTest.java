@@ -0,0 +1,38 @@
+package br.com.julianozanella.util.shard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashShardKeyTest {
+
+    private final ShardKey shardKey = new HashShardKey();
+
+    @Test
+    public void sameKeyGoesToSameShard() {
+        assertEquals(shardKey.getShard(42, 4), shardKey.getShard(42, 4));
+        assertEquals(shardKey.getShard("Foo", 4), shardKey.getShard("Foo", 4));
+    }
+
+    @Test
+    public void shardIsAlwaysInRange() {
+        for (int key = -100; key <= 100; key++) {
+            int shard = shardKey.getShard(key, 3);
+            assertTrue(shard >= 0 && shard < 3);
+        }
+        int shard = shardKey.getShard(Integer.MIN_VALUE, 3);
+        assertTrue(shard >= 0 && shard < 3);
+    }
+
+    @Test
+    public void keysAreSpreadOverAllShards() {
+        int[] counts = new int[3];
+        for (int key = 1; key <= 300; key++) {
+            counts[shardKey.getShard(key, 3)]++;
+        }
+        for (int count : counts) {
+            assertEquals(100, count);
+        }
+    }
+}
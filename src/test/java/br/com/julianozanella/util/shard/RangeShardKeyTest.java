@@ -0,0 +1,35 @@
+package br.com.julianozanella.util.shard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RangeShardKeyTest {
+
+    private final ShardKey shardKey = new RangeShardKey(1000, 2000);
+
+    @Test
+    public void keysGoToTheirRange() {
+        assertEquals(0, shardKey.getShard(0, 3));
+        assertEquals(0, shardKey.getShard(999, 3));
+        assertEquals(1, shardKey.getShard(1000, 3));
+        assertEquals(1, shardKey.getShard(1999L, 3));
+        assertEquals(2, shardKey.getShard(2000, 3));
+        assertEquals(2, shardKey.getShard(Long.MAX_VALUE, 3));
+    }
+
+    @Test
+    public void numericTextKeysAreAccepted() {
+        assertEquals(1, shardKey.getShard("1500", 3));
+    }
+
+    @Test
+    public void keysAboveTheShardsGoToTheLastShard() {
+        assertEquals(1, shardKey.getShard(5000, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonNumericKeysAreRejected() {
+        shardKey.getShard("Alabama", 3);
+    }
+}